@@ -1,5 +1,8 @@
 package com.hubspot.maven.plugins.dependency.scope;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -7,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
@@ -36,12 +40,16 @@ import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.graph.Dependency;
 import org.eclipse.aether.resolution.ArtifactDescriptorException;
 import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.repository.WorkspaceRepository;
 import org.eclipse.aether.resolution.ArtifactDescriptorResult;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -52,7 +60,6 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 @Mojo(name = "check", defaultPhase = LifecyclePhase.VALIDATE, requiresDependencyCollection = ResolutionScope.TEST, threadSafe = true)
 public class DependencyScopeMojo extends AbstractMojo {
-
   @Parameter( defaultValue = "${session}", required = true, readonly = true )
   protected MavenSession session;
 
@@ -77,6 +84,25 @@ public class DependencyScopeMojo extends AbstractMojo {
   @Parameter(property = "verbose", defaultValue = "true")
   private boolean verbose;
 
+  /**
+   * Reuse the artifact descriptor dependencies saved in {@link #descriptorCacheFile} by an earlier run
+   * and save the ones read by this run. This only skips the plugin's own descriptor lookups; Maven
+   * still resolves the whole dependency graph before the plugin runs. The cache is not a replayable
+   * snapshot of the dependency graph and cannot be used offline or to shard the analysis.
+   */
+  @Parameter(property = "useDescriptorCache", defaultValue = "false")
+  private boolean useDescriptorCache;
+
+  @Parameter(defaultValue = "${plugin.version}", readonly = true)
+  private String pluginVersion;
+
+  /**
+   * Location of the descriptor cache. Each module needs its own file, because modules
+   * sharing a file overwrite each other's entries.
+   */
+  @Parameter(property = "descriptorCacheFile", defaultValue = "${project.build.directory}/dependency-scope-descriptor-cache.bin")
+  private File descriptorCacheFile;
+
   @Component
   private RepositorySystem repositorySystem;
 
@@ -85,6 +111,8 @@ public class DependencyScopeMojo extends AbstractMojo {
 
   private ListeningExecutorService executorService;
   private Set<String> checkedArtifacts;
+  private DescriptorCache descriptorCache;
+  private Set<String> reactorArtifacts;
 
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
@@ -95,6 +123,11 @@ public class DependencyScopeMojo extends AbstractMojo {
 
     executorService = newExecutorService();
     checkedArtifacts = Sets.newConcurrentHashSet();
+    descriptorCache = readDescriptorCache();
+    reactorArtifacts = session.getProjects()
+        .stream()
+        .map(reactorProject -> reactorKey(reactorProject.getGroupId(), reactorProject.getArtifactId(), reactorProject.getVersion()))
+        .collect(ImmutableSet.toImmutableSet());
 
     DependencyNode node = buildDependencyNode();
     TraversalContext context = TraversalContext.newContextFor(project, node);
@@ -102,7 +135,7 @@ public class DependencyScopeMojo extends AbstractMojo {
     List<ListenableFuture<Set<DependencyViolation>>> futures = new ArrayList<>();
     for (DependencyNode dependency : node.getChildren()) {
       if (!Artifact.SCOPE_TEST.equals(dependency.getArtifact().getScope())) {
-        TraversalContext subcontext = context.stepInto(project, dependency);
+        TraversalContext subcontext = context.stepInto(dependency);
 
         futures.add(findViolations(subcontext));
       }
@@ -111,6 +144,10 @@ public class DependencyScopeMojo extends AbstractMojo {
     Set<DependencyViolation> violations = resolve(Futures.allAsList(futures));
     executorService.shutdown();
 
+    if (useDescriptorCache && descriptorCache.isModified()) {
+      writeDescriptorCache();
+    }
+
     if (!violations.isEmpty()) {
       printViolations(violations);
 
@@ -130,19 +167,19 @@ public class DependencyScopeMojo extends AbstractMojo {
       return future;
     }
 
-    Futures.addCallback(resolveArtifactDescriptor(context.currentArtifact()), new FutureCallback<ArtifactDescriptorResult>() {
+    Futures.addCallback(resolveDependencies(context.currentArtifact()), new FutureCallback<List<Dependency>>() {
 
       @Override
-      public void onSuccess(ArtifactDescriptorResult artifactDescriptor) {
-        if (artifactDescriptor == null) {
-          onFailure(new NullPointerException("artifactDescriptor"));
+      public void onSuccess(List<Dependency> dependencies) {
+        if (dependencies == null) {
+          onFailure(new NullPointerException("dependencies"));
           return;
         }
 
         try {
-          Set<Dependency> runtimeDependencies = artifactDescriptor.getDependencies()
+          Set<Dependency> runtimeDependencies = dependencies
               .stream()
-              .filter(DependencyScopeMojo::dependencyRequiredAtRuntime)
+              .filter(DescriptorCache::dependencyRequiredAtRuntime)
               .filter(dependency -> !context.isExcluded(dependency))
               .collect(ImmutableSet.toImmutableSet());
 
@@ -152,7 +189,7 @@ public class DependencyScopeMojo extends AbstractMojo {
           }
 
           TraversalContext temp = context;
-          TraversalContext context = temp.extendManagedDependencyExclusions(artifactDescriptor.getDependencies());
+          TraversalContext context = temp.extendManagedDependencyExclusions(dependencies);
           final Set<DependencyViolation> violations = Sets.newConcurrentHashSet();
           final CountDownLatch latch = new CountDownLatch(runtimeDependencies.size());
           for (Dependency dependency : runtimeDependencies) {
@@ -220,7 +257,19 @@ public class DependencyScopeMojo extends AbstractMojo {
     }
   }
 
-  private ListenableFuture<ArtifactDescriptorResult> resolveArtifactDescriptor(final Artifact artifact) {
+  private ListenableFuture<List<Dependency>> resolveDependencies(final Artifact artifact) {
+    // a stamp of 0 means the descriptor must not be cached
+    final long descriptorStamp = useDescriptorCache && cacheable(artifact, reactorArtifacts)
+        ? descriptorStamp(artifact)
+        : 0;
+
+    if (descriptorStamp != 0) {
+      Optional<List<Dependency>> cached = descriptorCache.getDependencies(artifact.getId(), descriptorStamp);
+      if (cached.isPresent()) {
+        return Futures.immediateFuture(cached.get());
+      }
+    }
+
     return executorService.submit(() -> {
       ArtifactDescriptorRequest request = new ArtifactDescriptorRequest(
           toAether(artifact),
@@ -228,15 +277,94 @@ public class DependencyScopeMojo extends AbstractMojo {
           null
       );
 
+      final ArtifactDescriptorResult artifactDescriptor;
       try {
-        return repositorySystem.readArtifactDescriptor(repositorySystemSession, request);
+        artifactDescriptor = repositorySystem.readArtifactDescriptor(repositorySystemSession, request);
       } catch (ArtifactDescriptorException e) {
         String message = "Error resolving descriptor for artifact " + readableGATCV(artifact);
         throw new MojoExecutionException(message, e);
       }
+
+      if (descriptorStamp != 0 && !resolvedFromWorkspace(artifactDescriptor)) {
+        descriptorCache.record(artifact.getId(), descriptorStamp, artifactDescriptor.getDependencies());
+      }
+
+      return artifactDescriptor.getDependencies();
     });
   }
 
+  /*
+  The modification time of the artifact's POM in the local repository, or 0 if it isn't
+  there. Re-installing a release under the same version changes it, which invalidates the
+  cached entry.
+   */
+  private long descriptorStamp(Artifact artifact) {
+    org.eclipse.aether.artifact.Artifact pom = new DefaultArtifact(
+        artifact.getGroupId(),
+        artifact.getArtifactId(),
+        "",
+        "pom",
+        artifact.getVersion()
+    );
+
+    String path = repositorySystemSession.getLocalRepositoryManager().getPathForLocalArtifact(pom);
+    return new File(repositorySystemSession.getLocalRepository().getBasedir(), path).lastModified();
+  }
+
+  private DescriptorCache readDescriptorCache() {
+    ImmutableMap<String, String> fingerprint = descriptorCacheFingerprint();
+    if (!useDescriptorCache || !descriptorCacheFile.isFile()) {
+      return DescriptorCache.empty(fingerprint);
+    }
+
+    try {
+      DescriptorCache descriptorCache = DescriptorCache.read(descriptorCacheFile);
+      if (!fingerprint.equals(descriptorCache.getFingerprint())) {
+        getLog().info("Ignoring descriptor cache " + descriptorCacheFile + " written by a different build environment");
+        getLog().debug("Expected " + fingerprint + " but found " + descriptorCache.getFingerprint());
+        return DescriptorCache.empty(fingerprint);
+      }
+
+      getLog().debug("Read descriptor cache " + descriptorCacheFile);
+      return descriptorCache;
+    } catch (IOException e) {
+      getLog().warn("Ignoring unreadable descriptor cache " + descriptorCacheFile + ": " + e.getMessage());
+      return DescriptorCache.empty(fingerprint);
+    }
+  }
+
+  private ImmutableMap<String, String> descriptorCacheFingerprint() {
+    // Maven interpolates dependency POMs and activates their profiles using all of the system
+    // properties (including env.*) and -D properties, so any change to them invalidates the cache
+    return ImmutableMap.of(
+        "plugin.version", String.valueOf(pluginVersion),
+        "java.version", String.valueOf(session.getSystemProperties().getProperty("java.version")),
+        "system.properties", hash(session.getSystemProperties()),
+        "user.properties", hash(session.getUserProperties())
+    );
+  }
+
+  private static String hash(Properties properties) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+      hasher.putString(key, StandardCharsets.UTF_8);
+      hasher.putString("=", StandardCharsets.UTF_8);
+      hasher.putString(properties.getProperty(key), StandardCharsets.UTF_8);
+      hasher.putString("\n", StandardCharsets.UTF_8);
+    }
+
+    return hasher.hash().toString();
+  }
+
+  private void writeDescriptorCache() {
+    try {
+      descriptorCache.write(descriptorCacheFile);
+      getLog().debug("Wrote " + descriptorCache.size() + " artifacts to descriptor cache " + descriptorCacheFile);
+    } catch (IOException e) {
+      getLog().warn("Error writing descriptor cache " + descriptorCacheFile + ": " + e.getMessage());
+    }
+  }
+
   private void printViolations(Set<DependencyViolation> violations) {
     Map<String, Set<DependencyViolation>> violationsByDependency = new HashMap<>();
     for (DependencyViolation violation : violations) {
@@ -299,13 +427,21 @@ public class DependencyScopeMojo extends AbstractMojo {
     }
   }
 
-  private static boolean dependencyRequiredAtRuntime(Dependency dependency) {
-    if (dependency.isOptional()) {
-      return false;
-    } else {
-      String scope = dependency.getScope();
-      return Artifact.SCOPE_COMPILE.equals(scope) || Artifact.SCOPE_RUNTIME.equals(scope);
-    }
+  /*
+  -SNAPSHOT versions can be redeployed, and reactor projects are read from their current
+  POM on disk, so the descriptors of either can change without their coordinates changing.
+   */
+  static boolean cacheable(Artifact artifact, Set<String> reactorArtifacts) {
+    return !artifact.isSnapshot()
+        && !reactorArtifacts.contains(reactorKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getBaseVersion()));
+  }
+
+  static boolean resolvedFromWorkspace(ArtifactDescriptorResult artifactDescriptor) {
+    return artifactDescriptor.getRepository() instanceof WorkspaceRepository;
+  }
+
+  static String reactorKey(String groupId, String artifactId, String version) {
+    return groupId + ":" + artifactId + ":" + version;
   }
 
   private static Set<DependencyViolation> resolve(ListenableFuture<List<Set<DependencyViolation>>> future)
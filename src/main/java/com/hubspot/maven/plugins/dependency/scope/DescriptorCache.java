@@ -0,0 +1,322 @@
+package com.hubspot.maven.plugins.dependency.scope;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/*
+Caches the dependencies read from each artifact descriptor during a traversal so that a
+later run of the same module can skip the plugin's own descriptor lookups. This is not a
+snapshot of the dependency graph: root nodes and root exclusions are not stored, so the
+cache cannot be replayed without Maven or split across machines. Each entry also records a
+stamp of the descriptor it was read from (the modification time of the POM in the local
+repository), and an entry is only reused while that stamp is unchanged, so re-installing
+an artifact under the same version invalidates it. Only the dependencies
+that the traversal looks at are kept: runtime edges (which carry their own exclusions) and
+any dependency declaring exclusions (which feed the managed exclusions of the subtree).
+ */
+public class DescriptorCache {
+  static final int MAGIC = 0x44534443;
+  // bump whenever the file layout, dependencyRequiredAtRuntime or the filter in record changes
+  static final int FORMAT_VERSION = 4;
+
+  private final ImmutableMap<String, String> fingerprint;
+  private final ImmutableMap<String, CachedDescriptor> previousDependenciesByArtifact;
+  private final ConcurrentMap<String, CachedDescriptor> dependenciesByArtifact;
+  private final AtomicBoolean recorded;
+
+  private DescriptorCache(ImmutableMap<String, String> fingerprint,
+                          ImmutableMap<String, CachedDescriptor> previousDependenciesByArtifact) {
+    this.fingerprint = fingerprint;
+    this.previousDependenciesByArtifact = previousDependenciesByArtifact;
+    this.dependenciesByArtifact = new ConcurrentHashMap<>();
+    this.recorded = new AtomicBoolean(false);
+  }
+
+  public static DescriptorCache empty(ImmutableMap<String, String> fingerprint) {
+    return new DescriptorCache(fingerprint, ImmutableMap.of());
+  }
+
+  /*
+  Every count and string index is validated, so a damaged file fails with an IOException
+  rather than an unchecked exception that would fail the build.
+   */
+  public static DescriptorCache read(File file) throws IOException {
+    // each counted entry takes at least one byte, so no valid count exceeds the file length
+    long maxCount = file.length();
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (input.readInt() != MAGIC) {
+        throw new IOException("Not a descriptor cache: " + file);
+      }
+
+      int version = input.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported descriptor cache version " + version + ": " + file);
+      }
+
+      int fingerprintSize = readCount(input, maxCount);
+      Map<String, String> fingerprint = new LinkedHashMap<>();
+      for (int i = 0; i < fingerprintSize; i++) {
+        String key = input.readUTF();
+        if (fingerprint.put(key, input.readUTF()) != null) {
+          throw new IOException("Duplicate fingerprint entry " + key + " in descriptor cache: " + file);
+        }
+      }
+
+      String[] strings = new String[readCount(input, maxCount)];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = input.readUTF();
+      }
+
+      int artifactCount = readCount(input, maxCount);
+      Map<String, CachedDescriptor> dependenciesByArtifact = new HashMap<>();
+      for (int i = 0; i < artifactCount; i++) {
+        String artifactId = readString(input, strings);
+        long descriptorStamp = input.readLong();
+
+        int dependencyCount = readCount(input, maxCount);
+        ImmutableList.Builder<Dependency> dependencies = ImmutableList.builderWithExpectedSize(dependencyCount);
+        for (int j = 0; j < dependencyCount; j++) {
+          dependencies.add(readDependency(input, strings, maxCount));
+        }
+
+        CachedDescriptor descriptor = new CachedDescriptor(descriptorStamp, dependencies.build());
+        if (dependenciesByArtifact.put(artifactId, descriptor) != null) {
+          throw new IOException("Duplicate artifact " + artifactId + " in descriptor cache: " + file);
+        }
+      }
+
+      if (input.read() != -1) {
+        throw new IOException("Unexpected trailing data in descriptor cache: " + file);
+      }
+
+      return new DescriptorCache(ImmutableMap.copyOf(fingerprint), ImmutableMap.copyOf(dependenciesByArtifact));
+    }
+  }
+
+  /*
+  Only the artifacts looked up or recorded during this run are written, so entries for
+  versions the project no longer depends on are dropped.
+   */
+  public void write(File file) throws IOException {
+    Map<String, Integer> stringIndexes = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    Map<String, CachedDescriptor> dependenciesByArtifact = new HashMap<>(this.dependenciesByArtifact);
+    for (Entry<String, CachedDescriptor> entry : dependenciesByArtifact.entrySet()) {
+      intern(entry.getKey(), stringIndexes, strings);
+      for (Dependency dependency : entry.getValue().dependencies) {
+        Artifact artifact = dependency.getArtifact();
+        intern(artifact.getGroupId(), stringIndexes, strings);
+        intern(artifact.getArtifactId(), stringIndexes, strings);
+        intern(artifact.getClassifier(), stringIndexes, strings);
+        intern(artifact.getExtension(), stringIndexes, strings);
+        intern(artifact.getVersion(), stringIndexes, strings);
+        intern(dependency.getScope(), stringIndexes, strings);
+        for (Exclusion exclusion : dependency.getExclusions()) {
+          intern(exclusion.getGroupId(), stringIndexes, strings);
+          intern(exclusion.getArtifactId(), stringIndexes, strings);
+          intern(exclusion.getClassifier(), stringIndexes, strings);
+          intern(exclusion.getExtension(), stringIndexes, strings);
+        }
+      }
+    }
+
+    File parent = file.getAbsoluteFile().getParentFile();
+    Files.createDirectories(parent.toPath());
+    File temp = File.createTempFile(file.getName(), ".tmp", parent);
+    try {
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+
+        output.writeInt(fingerprint.size());
+        for (Entry<String, String> entry : fingerprint.entrySet()) {
+          output.writeUTF(entry.getKey());
+          output.writeUTF(entry.getValue());
+        }
+
+        output.writeInt(strings.size());
+        for (String string : strings) {
+          output.writeUTF(string);
+        }
+
+        output.writeInt(dependenciesByArtifact.size());
+        for (Entry<String, CachedDescriptor> entry : dependenciesByArtifact.entrySet()) {
+          output.writeInt(stringIndexes.get(entry.getKey()));
+          output.writeLong(entry.getValue().descriptorStamp);
+          output.writeInt(entry.getValue().dependencies.size());
+          for (Dependency dependency : entry.getValue().dependencies) {
+            writeDependency(output, dependency, stringIndexes);
+          }
+        }
+      }
+
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp.toPath());
+    }
+  }
+
+  /*
+  Describes the inputs that can change descriptor contents without changing artifact
+  coordinates (plugin version, and the system and user properties used for profile
+  activation and interpolation).
+  A cache whose fingerprint differs from the current build must not be replayed.
+   */
+  public ImmutableMap<String, String> getFingerprint() {
+    return fingerprint;
+  }
+
+  public Optional<List<Dependency>> getDependencies(String artifactId, long descriptorStamp) {
+    CachedDescriptor descriptor = dependenciesByArtifact.get(artifactId);
+    if (descriptor == null) {
+      descriptor = previousDependenciesByArtifact.get(artifactId);
+      if (descriptor == null || descriptor.descriptorStamp != descriptorStamp) {
+        return Optional.empty();
+      }
+
+      dependenciesByArtifact.put(artifactId, descriptor);
+    }
+
+    return Optional.of(descriptor.dependencies);
+  }
+
+  public void record(String artifactId, long descriptorStamp, List<Dependency> dependencies) {
+    ImmutableList<Dependency> retained = dependencies.stream()
+        .filter(dependency -> dependencyRequiredAtRuntime(dependency) || !dependency.getExclusions().isEmpty())
+        .collect(ImmutableList.toImmutableList());
+
+    dependenciesByArtifact.put(artifactId, new CachedDescriptor(descriptorStamp, retained));
+    recorded.set(true);
+  }
+
+  public boolean isModified() {
+    return recorded.get() || dependenciesByArtifact.size() != previousDependenciesByArtifact.size();
+  }
+
+  public int size() {
+    return dependenciesByArtifact.size();
+  }
+
+  /*
+  The traversal follows exactly these dependencies, and record keeps them, so the predicate
+  lives here next to FORMAT_VERSION.
+   */
+  public static boolean dependencyRequiredAtRuntime(Dependency dependency) {
+    if (dependency.isOptional()) {
+      return false;
+    } else {
+      String scope = dependency.getScope();
+      return org.apache.maven.artifact.Artifact.SCOPE_COMPILE.equals(scope)
+          || org.apache.maven.artifact.Artifact.SCOPE_RUNTIME.equals(scope);
+    }
+  }
+
+  private static Dependency readDependency(DataInputStream input, String[] strings, long maxCount) throws IOException {
+    Artifact artifact = new DefaultArtifact(
+        readString(input, strings),
+        readString(input, strings),
+        readString(input, strings),
+        readString(input, strings),
+        readString(input, strings)
+    );
+    String scope = readString(input, strings);
+    boolean optional = input.readBoolean();
+
+    int exclusionCount = readCount(input, maxCount);
+    List<Exclusion> exclusions = new ArrayList<>(exclusionCount);
+    for (int i = 0; i < exclusionCount; i++) {
+      exclusions.add(
+          new Exclusion(
+              readString(input, strings),
+              readString(input, strings),
+              readString(input, strings),
+              readString(input, strings)
+          )
+      );
+    }
+
+    return new Dependency(artifact, scope, optional, exclusions);
+  }
+
+  private static int readCount(DataInputStream input, long maxCount) throws IOException {
+    int count = input.readInt();
+    if (count < 0 || count > maxCount) {
+      throw new IOException("Invalid count " + count + " in descriptor cache");
+    }
+
+    return count;
+  }
+
+  private static String readString(DataInputStream input, String[] strings) throws IOException {
+    int index = input.readInt();
+    if (index < 0 || index >= strings.length) {
+      throw new IOException("Invalid string index " + index + " in descriptor cache");
+    }
+
+    return strings[index];
+  }
+
+  private static void writeDependency(DataOutputStream output,
+                                      Dependency dependency,
+                                      Map<String, Integer> stringIndexes) throws IOException {
+    Artifact artifact = dependency.getArtifact();
+    output.writeInt(stringIndexes.get(artifact.getGroupId()));
+    output.writeInt(stringIndexes.get(artifact.getArtifactId()));
+    output.writeInt(stringIndexes.get(artifact.getClassifier()));
+    output.writeInt(stringIndexes.get(artifact.getExtension()));
+    output.writeInt(stringIndexes.get(artifact.getVersion()));
+    output.writeInt(stringIndexes.get(dependency.getScope()));
+    output.writeBoolean(dependency.isOptional());
+
+    output.writeInt(dependency.getExclusions().size());
+    for (Exclusion exclusion : dependency.getExclusions()) {
+      output.writeInt(stringIndexes.get(exclusion.getGroupId()));
+      output.writeInt(stringIndexes.get(exclusion.getArtifactId()));
+      output.writeInt(stringIndexes.get(exclusion.getClassifier()));
+      output.writeInt(stringIndexes.get(exclusion.getExtension()));
+    }
+  }
+
+  private static void intern(String value, Map<String, Integer> stringIndexes, List<String> strings) {
+    if (!stringIndexes.containsKey(value)) {
+      stringIndexes.put(value, strings.size());
+      strings.add(value);
+    }
+  }
+
+  private static final class CachedDescriptor {
+    private final long descriptorStamp;
+    private final ImmutableList<Dependency> dependencies;
+
+    private CachedDescriptor(long descriptorStamp, ImmutableList<Dependency> dependencies) {
+      this.descriptorStamp = descriptorStamp;
+      this.dependencies = dependencies;
+    }
+  }
+}
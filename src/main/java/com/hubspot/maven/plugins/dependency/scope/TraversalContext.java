@@ -16,6 +16,7 @@ import org.eclipse.aether.graph.Exclusion;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.MapDifference;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -29,19 +30,22 @@ public class TraversalContext {
   private final ImmutableMap<String, String> dependencyVersions;
   private final ImmutableSet<Exclusion> exclusions;
   private final ImmutableMap<String, ImmutableSet<Exclusion>> dependencyManagementExclusions;
+  private final ImmutableSetMultimap<String, Exclusion> directDependencyExclusions;
 
   private TraversalContext(Artifact artifact,
                            ImmutableList<Artifact> path,
                            ImmutableSet<String> testScopedArtifacts,
                            ImmutableMap<String, String> dependencyVersions,
                            ImmutableSet<Exclusion> exclusions,
-                           ImmutableMap<String, ImmutableSet<Exclusion>> dependencyManagementExclusions) {
+                           ImmutableMap<String, ImmutableSet<Exclusion>> dependencyManagementExclusions,
+                           ImmutableSetMultimap<String, Exclusion> directDependencyExclusions) {
     this.artifact = artifact;
     this.path = path;
     this.testScopedArtifacts = testScopedArtifacts;
     this.dependencyVersions = dependencyVersions;
     this.exclusions = exclusions;
     this.dependencyManagementExclusions = dependencyManagementExclusions;
+    this.directDependencyExclusions = directDependencyExclusions;
   }
 
   public static TraversalContext newContextFor(MavenProject project, DependencyNode node) {
@@ -75,13 +79,25 @@ public class TraversalContext {
           );
     }
 
+    /*
+    index the exclusions declared on the project's own dependencies once, rather than
+    scanning every direct dependency each time we step into one of them
+     */
+    ImmutableSetMultimap.Builder<String, Exclusion> directDependencyExclusions = ImmutableSetMultimap.builder();
+    for (org.apache.maven.model.Dependency dependency : project.getDependencies()) {
+      if (!dependency.getExclusions().isEmpty()) {
+        directDependencyExclusions.putAll(dependency.getManagementKey(), exclusions(dependency));
+      }
+    }
+
     return new TraversalContext(
         node.getArtifact(),
         ImmutableList.of(node.getArtifact()),
         testScopedArtifacts,
         dependencyVersions,
         ImmutableSet.of(),
-        dependencyManagementExclusions
+        dependencyManagementExclusions,
+        directDependencyExclusions.build()
     );
   }
 
@@ -108,11 +124,12 @@ public class TraversalContext {
         testScopedArtifacts,
         dependencyVersions,
         exclusions,
-        mergedExclusions
+        mergedExclusions,
+        directDependencyExclusions
     );
   }
 
-  public TraversalContext stepInto(MavenProject project, DependencyNode node) {
+  public TraversalContext stepInto(DependencyNode node) {
     String artifactKey = node.getArtifact().getDependencyConflictId();
 
     ImmutableList<Artifact> path = ImmutableList.<Artifact>builderWithExpectedSize(this.path.size() + 1)
@@ -127,12 +144,8 @@ public class TraversalContext {
       exclusions = Sets.union(exclusions, toAdd);
     }
 
-    for (org.apache.maven.model.Dependency dependency : project.getDependencies()) {
-      if (artifactKey.equals(dependency.getManagementKey())) {
-        if (!dependency.getExclusions().isEmpty()) {
-          exclusions = Sets.union(exclusions, exclusions(dependency));
-        }
-      }
+    if (directDependencyExclusions.containsKey(artifactKey)) {
+      exclusions = Sets.union(exclusions, directDependencyExclusions.get(artifactKey));
     }
 
     return new TraversalContext(
@@ -141,7 +154,8 @@ public class TraversalContext {
         testScopedArtifacts,
         dependencyVersions,
         ImmutableSet.copyOf(exclusions),
-        dependencyManagementExclusions
+        dependencyManagementExclusions,
+        directDependencyExclusions
     );
   }
 
@@ -177,7 +191,8 @@ public class TraversalContext {
             testScopedArtifacts,
             dependencyVersions,
             exclusions,
-            dependencyManagementExclusions
+            dependencyManagementExclusions,
+            directDependencyExclusions
         )
     );
   }
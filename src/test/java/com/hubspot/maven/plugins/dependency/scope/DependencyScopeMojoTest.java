@@ -0,0 +1,59 @@
+package com.hubspot.maven.plugins.dependency.scope;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.WorkspaceRepository;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactDescriptorResult;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class DependencyScopeMojoTest {
+  private static final ImmutableSet<String> REACTOR_ARTIFACTS = ImmutableSet.of(
+      DependencyScopeMojo.reactorKey("com.example", "sibling", "1.0")
+  );
+
+  @Test
+  public void itCachesReleasesFromOutsideTheReactor() {
+    assertTrue(DependencyScopeMojo.cacheable(artifact("library", "1.0"), REACTOR_ARTIFACTS));
+  }
+
+  @Test
+  public void itDoesNotCacheReactorProjectsWithReleaseVersions() {
+    assertFalse(DependencyScopeMojo.cacheable(artifact("sibling", "1.0"), REACTOR_ARTIFACTS));
+  }
+
+  @Test
+  public void itDoesNotCacheSnapshotVersions() {
+    assertFalse(DependencyScopeMojo.cacheable(artifact("library", "1.0-SNAPSHOT"), REACTOR_ARTIFACTS));
+  }
+
+  @Test
+  public void itDetectsDescriptorsReadFromTheWorkspace() {
+    ArtifactDescriptorResult fromWorkspace = new ArtifactDescriptorResult(new ArtifactDescriptorRequest());
+    fromWorkspace.setRepository(new WorkspaceRepository("reactor"));
+    assertTrue(DependencyScopeMojo.resolvedFromWorkspace(fromWorkspace));
+
+    ArtifactDescriptorResult fromLocalRepository = new ArtifactDescriptorResult(new ArtifactDescriptorRequest());
+    fromLocalRepository.setRepository(new LocalRepository("target/local-repo"));
+    assertFalse(DependencyScopeMojo.resolvedFromWorkspace(fromLocalRepository));
+  }
+
+  private static Artifact artifact(String artifactId, String version) {
+    return new DefaultArtifact(
+        "com.example",
+        artifactId,
+        version,
+        Artifact.SCOPE_COMPILE,
+        "jar",
+        null,
+        new DefaultArtifactHandler("jar")
+    );
+  }
+}
@@ -0,0 +1,271 @@
+package com.hubspot.maven.plugins.dependency.scope;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class DescriptorCacheTest {
+  private static final ImmutableMap<String, String> FINGERPRINT = ImmutableMap.of(
+      "plugin.version", "0.11-SNAPSHOT",
+      "java.version", "11.0.2"
+  );
+  private static final long STAMP = 1_500_000_000_000L;
+
+  private static final Dependency RUNTIME = dependency("com.example:runtime:jar:1.0", "compile");
+  private static final Dependency CLASSIFIED = new Dependency(
+      new DefaultArtifact("com.example", "classified", "tests", "test-jar", "1.0"),
+      "runtime",
+      false,
+      ImmutableList.of(new Exclusion("com.example", "excluded", "*", "*"))
+  );
+  private static final Dependency OPTIONAL_WITH_EXCLUSIONS = new Dependency(
+      new DefaultArtifact("com.example", "optional", "", "zip", "1.0"),
+      "compile",
+      true,
+      ImmutableList.of(new Exclusion("com.example", "transitive", "sources", "jar"))
+  );
+  private static final Dependency TEST_WITH_EXCLUSIONS = new Dependency(
+      new DefaultArtifact("com.example:managed:jar:1.0"),
+      "test",
+      false,
+      ImmutableList.of(new Exclusion("com.example", "excluded", "*", "*"))
+  );
+  private static final Dependency PROVIDED = dependency("com.example:provided:jar:1.0", "provided");
+  private static final Dependency OPTIONAL = new Dependency(
+      new DefaultArtifact("com.example:plain-optional:jar:1.0"),
+      "compile",
+      true
+  );
+  private static final Dependency EXCLUDED = dependency("com.example:excluded:jar:1.0", "compile");
+
+  private static final List<Dependency> DESCRIPTOR_DEPENDENCIES = ImmutableList.of(
+      RUNTIME,
+      CLASSIFIED,
+      OPTIONAL_WITH_EXCLUSIONS,
+      TEST_WITH_EXCLUSIONS,
+      PROVIDED,
+      OPTIONAL,
+      EXCLUDED
+  );
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void itRoundTripsRecordedDependencies() throws Exception {
+    DescriptorCache cache = DescriptorCache.empty(FINGERPRINT);
+    cache.record("com.example:parent:jar:1.0", STAMP, DESCRIPTOR_DEPENDENCIES);
+    cache.record("com.example:leaf:jar:1.0", STAMP, ImmutableList.of());
+
+    File file = new File(temporaryFolder.getRoot(), "descriptor-cache.bin");
+    cache.write(file);
+
+    DescriptorCache read = DescriptorCache.read(file);
+    assertEquals(FINGERPRINT, read.getFingerprint());
+    assertEquals(
+        ImmutableList.of(RUNTIME, CLASSIFIED, OPTIONAL_WITH_EXCLUSIONS, TEST_WITH_EXCLUSIONS, EXCLUDED),
+        read.getDependencies("com.example:parent:jar:1.0", STAMP).get()
+    );
+    assertEquals(ImmutableList.of(), read.getDependencies("com.example:leaf:jar:1.0", STAMP).get());
+    assertFalse(read.getDependencies("com.example:missing:jar:1.0", STAMP).isPresent());
+    assertFalse(read.isModified());
+  }
+
+  @Test
+  public void itOnlyWritesEntriesUsedInThisRun() throws Exception {
+    DescriptorCache cache = DescriptorCache.empty(FINGERPRINT);
+    cache.record("com.example:used:jar:1.0", STAMP, ImmutableList.of(RUNTIME));
+    cache.record("com.example:stale:jar:1.0", STAMP, ImmutableList.of(RUNTIME));
+
+    File file = new File(temporaryFolder.getRoot(), "descriptor-cache.bin");
+    cache.write(file);
+
+    DescriptorCache read = DescriptorCache.read(file);
+    read.getDependencies("com.example:used:jar:1.0", STAMP);
+    assertTrue(read.isModified());
+    read.write(file);
+
+    DescriptorCache pruned = DescriptorCache.read(file);
+    assertTrue(pruned.getDependencies("com.example:used:jar:1.0", STAMP).isPresent());
+    assertFalse(pruned.getDependencies("com.example:stale:jar:1.0", STAMP).isPresent());
+  }
+
+  @Test
+  public void itIgnoresEntriesWhoseDescriptorChanged() throws Exception {
+    DescriptorCache cache = DescriptorCache.empty(FINGERPRINT);
+    cache.record("com.example:reinstalled:jar:1.0", STAMP, ImmutableList.of(RUNTIME));
+
+    File file = new File(temporaryFolder.getRoot(), "descriptor-cache.bin");
+    cache.write(file);
+
+    DescriptorCache read = DescriptorCache.read(file);
+    assertFalse(read.getDependencies("com.example:reinstalled:jar:1.0", STAMP + 1).isPresent());
+    assertTrue(read.isModified());
+  }
+
+  @Test(expected = IOException.class)
+  public void itRejectsATruncatedFile() throws Exception {
+    DescriptorCache cache = DescriptorCache.empty(FINGERPRINT);
+    cache.record("com.example:parent:jar:1.0", STAMP, DESCRIPTOR_DEPENDENCIES);
+
+    File file = new File(temporaryFolder.getRoot(), "descriptor-cache.bin");
+    cache.write(file);
+
+    byte[] contents = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(contents, contents.length - 3));
+
+    DescriptorCache.read(file);
+  }
+
+  @Test(expected = IOException.class)
+  public void itRejectsANegativeStringTableSize() throws Exception {
+    DescriptorCache.read(corruptFile(output -> output.writeInt(-1)));
+  }
+
+  @Test(expected = IOException.class)
+  public void itRejectsAStringTableLargerThanTheFile() throws Exception {
+    DescriptorCache.read(corruptFile(output -> output.writeInt(Integer.MAX_VALUE)));
+  }
+
+  @Test(expected = IOException.class)
+  public void itRejectsAnOutOfRangeStringIndex() throws Exception {
+    DescriptorCache.read(corruptFile(output -> {
+      output.writeInt(1);
+      output.writeUTF("com.example:parent:jar:1.0");
+      output.writeInt(1);
+      output.writeInt(5);
+      output.writeInt(0);
+    }));
+  }
+
+  @Test(expected = IOException.class)
+  public void itRejectsADuplicateArtifact() throws Exception {
+    DescriptorCache.read(corruptFile(output -> {
+      output.writeInt(1);
+      output.writeUTF("com.example:parent:jar:1.0");
+      output.writeInt(2);
+      output.writeInt(0);
+      output.writeLong(STAMP);
+      output.writeInt(0);
+      output.writeInt(0);
+      output.writeLong(STAMP);
+      output.writeInt(0);
+    }));
+  }
+
+  private File corruptFile(Body body) throws IOException {
+    File file = new File(temporaryFolder.getRoot(), "descriptor-cache.bin");
+    try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+      output.writeInt(DescriptorCache.MAGIC);
+      output.writeInt(DescriptorCache.FORMAT_VERSION);
+      output.writeInt(0);
+      body.write(output);
+    }
+
+    return file;
+  }
+
+  private interface Body {
+    void write(DataOutputStream output) throws IOException;
+  }
+
+  @Test
+  public void itReplaysTheSameTraversalAsTheDescriptor() throws Exception {
+    DescriptorCache cache = DescriptorCache.empty(FINGERPRINT);
+    cache.record("com.example:parent:jar:1.0", STAMP, DESCRIPTOR_DEPENDENCIES);
+
+    File file = new File(temporaryFolder.getRoot(), "descriptor-cache.bin");
+    cache.write(file);
+    List<Dependency> replayed = DescriptorCache.read(file).getDependencies("com.example:parent:jar:1.0", STAMP).get();
+
+    TraversalContext context = parentContext();
+    TraversalContext fresh = context.extendManagedDependencyExclusions(DESCRIPTOR_DEPENDENCIES);
+    TraversalContext replay = context.extendManagedDependencyExclusions(replayed);
+
+    assertEquals(runtimeEdges(context, DESCRIPTOR_DEPENDENCIES), runtimeEdges(context, replayed));
+
+    // the managed exclusion declared on the test-scoped dependency applies wherever it is reached
+    Dependency managed = dependency("com.example:managed:jar:1.0", "compile");
+    assertTrue(fresh.stepInto(managed).get().isExcluded(EXCLUDED));
+    assertTrue(replay.stepInto(managed).get().isExcluded(EXCLUDED));
+
+    for (Dependency dependency : runtimeEdges(context, DESCRIPTOR_DEPENDENCIES)) {
+      for (Dependency probe : DESCRIPTOR_DEPENDENCIES) {
+        assertEquals(
+            fresh.stepInto(dependency).get().isExcluded(probe),
+            replay.stepInto(dependency).get().isExcluded(probe)
+        );
+      }
+    }
+  }
+
+  private static Set<Dependency> runtimeEdges(TraversalContext context, List<Dependency> dependencies) {
+    return dependencies.stream()
+        .filter(DescriptorCache::dependencyRequiredAtRuntime)
+        .filter(dependency -> !context.isExcluded(dependency))
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  private static TraversalContext parentContext() {
+    Artifact root = artifact("root", "jar", null, Artifact.SCOPE_COMPILE);
+    Artifact parent = artifact("parent", "jar", null, Artifact.SCOPE_COMPILE);
+
+    MavenProject project = new MavenProject();
+    project.setArtifacts(
+        ImmutableSet.of(
+            parent,
+            artifact("runtime", "jar", null, Artifact.SCOPE_RUNTIME),
+            artifact("classified", "test-jar", "tests", Artifact.SCOPE_RUNTIME),
+            artifact("managed", "jar", null, Artifact.SCOPE_RUNTIME),
+            artifact("excluded", "jar", null, Artifact.SCOPE_RUNTIME)
+        )
+    );
+
+    DefaultDependencyNode rootNode = new DefaultDependencyNode(null, root, null, null, null);
+    DefaultDependencyNode parentNode = new DefaultDependencyNode(rootNode, parent, null, null, null);
+    rootNode.setChildren(ImmutableList.<DependencyNode>of(parentNode));
+
+    return TraversalContext.newContextFor(project, rootNode).stepInto(parentNode);
+  }
+
+  private static Artifact artifact(String artifactId, String type, String classifier, String scope) {
+    return new org.apache.maven.artifact.DefaultArtifact(
+        "com.example",
+        artifactId,
+        "1.0",
+        scope,
+        type,
+        classifier,
+        new DefaultArtifactHandler(type)
+    );
+  }
+
+  private static Dependency dependency(String coordinates, String scope) {
+    return new Dependency(new DefaultArtifact(coordinates), scope);
+  }
+}
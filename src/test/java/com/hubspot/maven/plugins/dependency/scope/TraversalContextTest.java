@@ -0,0 +1,140 @@
+package com.hubspot.maven.plugins.dependency.scope;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TraversalContextTest {
+
+  @Test
+  public void itAppliesOnlyTheMatchingDirectDependencyExclusions() {
+    MavenProject project = new MavenProject();
+    project.addDependency(dependency("first", "excluded-by-first"));
+    project.addDependency(dependency("second", "excluded-by-second", "also-excluded-by-second"));
+    project.addDependency(dependency("third"));
+
+    DefaultDependencyNode root = node(null, "root");
+    DefaultDependencyNode first = node(root, "first");
+    DefaultDependencyNode second = node(root, "second");
+    DefaultDependencyNode third = node(root, "third");
+    root.setChildren(ImmutableList.<DependencyNode>of(first, second, third));
+
+    TraversalContext context = TraversalContext.newContextFor(project, root);
+
+    TraversalContext firstContext = context.stepInto(first);
+    assertTrue(firstContext.isExcluded(aetherDependency("excluded-by-first")));
+    assertFalse(firstContext.isExcluded(aetherDependency("excluded-by-second")));
+    assertFalse(firstContext.isExcluded(aetherDependency("also-excluded-by-second")));
+
+    TraversalContext secondContext = context.stepInto(second);
+    assertFalse(secondContext.isExcluded(aetherDependency("excluded-by-first")));
+    assertTrue(secondContext.isExcluded(aetherDependency("excluded-by-second")));
+    assertTrue(secondContext.isExcluded(aetherDependency("also-excluded-by-second")));
+
+    TraversalContext thirdContext = context.stepInto(third);
+    assertFalse(thirdContext.isExcluded(aetherDependency("excluded-by-first")));
+    assertFalse(thirdContext.isExcluded(aetherDependency("excluded-by-second")));
+    assertFalse(thirdContext.isExcluded(aetherDependency("also-excluded-by-second")));
+  }
+
+  /*
+  Stepping into every root child used to scan all direct dependencies per child, which is
+  quadratic. With the root index the cost per child should stay roughly flat from 50 to
+  2,000 direct dependencies; the bound is loose (quadratic would be ~40x) to avoid flakiness.
+   */
+  @Test
+  public void itScalesLinearlyWithDirectDependencies() {
+    long nanosPerChildAt50 = nanosPerChild(50);
+    long nanosPerChildAt500 = nanosPerChild(500);
+    long nanosPerChildAt2000 = nanosPerChild(2000);
+
+    System.out.println(
+        "TraversalContext root traversal ns/child: 50=" + nanosPerChildAt50 +
+            ", 500=" + nanosPerChildAt500 +
+            ", 2000=" + nanosPerChildAt2000
+    );
+
+    assertTrue(
+        "Per-child cost grew from " + nanosPerChildAt50 + "ns to " + nanosPerChildAt2000 + "ns",
+        nanosPerChildAt2000 < Math.max(nanosPerChildAt50, 1_000) * 10
+    );
+  }
+
+  private static long nanosPerChild(int directDependencies) {
+    MavenProject project = new MavenProject();
+    DefaultDependencyNode root = node(null, "root");
+    List<DependencyNode> children = new ArrayList<>(directDependencies);
+    for (int i = 0; i < directDependencies; i++) {
+      project.addDependency(dependency("dependency-" + i, "excluded-" + i));
+      children.add(node(root, "dependency-" + i));
+    }
+    root.setChildren(children);
+
+    Dependency probe = aetherDependency("excluded-0");
+    long best = Long.MAX_VALUE;
+    for (int run = 0; run < 20; run++) {
+      long start = System.nanoTime();
+      TraversalContext context = TraversalContext.newContextFor(project, root);
+      int excluded = 0;
+      for (DependencyNode child : children) {
+        if (context.stepInto(child).isExcluded(probe)) {
+          excluded++;
+        }
+      }
+      best = Math.min(best, System.nanoTime() - start);
+
+      assertEquals(1, excluded);
+    }
+
+    return best / directDependencies;
+  }
+
+  private static org.apache.maven.model.Dependency dependency(String artifactId, String... excludedArtifactIds) {
+    org.apache.maven.model.Dependency dependency = new org.apache.maven.model.Dependency();
+    dependency.setGroupId("com.example");
+    dependency.setArtifactId(artifactId);
+    dependency.setVersion("1.0");
+
+    for (String excludedArtifactId : excludedArtifactIds) {
+      Exclusion exclusion = new Exclusion();
+      exclusion.setGroupId("com.example");
+      exclusion.setArtifactId(excludedArtifactId);
+      dependency.addExclusion(exclusion);
+    }
+
+    return dependency;
+  }
+
+  private static DefaultDependencyNode node(DependencyNode parent, String artifactId) {
+    Artifact artifact = new DefaultArtifact(
+        "com.example",
+        artifactId,
+        "1.0",
+        Artifact.SCOPE_COMPILE,
+        "jar",
+        null,
+        new DefaultArtifactHandler("jar")
+    );
+
+    return new DefaultDependencyNode(parent, artifact, null, null, null);
+  }
+
+  private static Dependency aetherDependency(String artifactId) {
+    return new Dependency(new org.eclipse.aether.artifact.DefaultArtifact("com.example:" + artifactId + ":jar:1.0"), "compile");
+  }
+}